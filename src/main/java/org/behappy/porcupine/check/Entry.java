@@ -1,6 +1,7 @@
 package org.behappy.porcupine.check;
 
 import org.behappy.porcupine.model.CallEvent;
+import org.behappy.porcupine.model.CheckResult;
 import org.behappy.porcupine.model.Event;
 import org.behappy.porcupine.model.Model;
 import org.behappy.porcupine.model.Operation;
@@ -15,6 +16,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.behappy.porcupine.check.CacheEntry.cacheContains;
 
@@ -25,12 +27,16 @@ public record Entry<T>(
         long time,
         int clientId) implements Comparable<Entry<T>> {
 
-    static <T> List<Entry<T>> makeEntries(List<Operation<T>> history) {
+    /// how many search steps [#checkSingle] batches up before publishing them
+    /// to the shared counter
+    private static final int EXPLORED_FLUSH_INTERVAL = 1 << 12;
+
+    public static <T> List<Entry<T>> makeEntries(List<Operation<T>> history) {
         var entries = new ArrayList<Entry<T>>();
         var id = 0;
         for (var elem : history) {
             entries.add(new Entry<>(EntryKind.CALL, elem.input(), id, elem.callTime(), elem.clientId()));
-            entries.add(new Entry<>(EntryKind.CALL, elem.output(), id, elem.returnTime(), elem.clientId()));
+            entries.add(new Entry<>(EntryKind.RETURN, elem.output(), id, elem.returnTime(), elem.clientId()));
             id++;
         }
         entries.sort(Comparator.naturalOrder());
@@ -64,6 +70,46 @@ public record Entry<T>(
         return root;
     }
 
+    /// Checks a single partition. If `precheck` is set and the model supplies
+    /// [Model#precheckHints], a linear-time pass runs first and reports
+    /// Illegal with the offending operation without entering the search;
+    /// otherwise this falls through to [#checkSingle].
+    public static <S, I, O, T> PartitionResult<T> checkPartition(
+            Model<S, I, O, T> model,
+            List<Entry<T>> history,
+            boolean computePartial,
+            AtomicInteger kill,
+            boolean precheck
+    ) {
+        return checkPartition(model, history, computePartial, kill, precheck, new AtomicLong());
+    }
+
+    /// Same as [#checkPartition(Model, List, boolean, AtomicInteger, boolean)],
+    /// additionally adding the number of search steps taken to `explored`.
+    public static <S, I, O, T> PartitionResult<T> checkPartition(
+            Model<S, I, O, T> model,
+            List<Entry<T>> history,
+            boolean computePartial,
+            AtomicInteger kill,
+            boolean precheck,
+            AtomicLong explored
+    ) {
+        var hints = precheck ? model.precheckHints() : null;
+        if (hints != null) {
+            var violation = Precheck.findViolation(hints, history);
+            if (violation != null) {
+                // no partial linearizations are computed for this partition
+                List<List<Integer>> longest = new ArrayList<>(Collections.nCopies(history.size() / 2, null));
+                return new PartitionResult<>(CheckResult.Illegal, longest, violation);
+            }
+        }
+        var result = checkSingle(model, history, computePartial, kill, explored);
+        if (result.first()) {
+            return new PartitionResult<>(CheckResult.Ok, result.second(), null);
+        }
+        var verdict = kill.get() != 0 ? CheckResult.Unknown : CheckResult.Illegal;
+        return new PartitionResult<>(verdict, result.second(), null);
+    }
 
     public static <S, I, O, T> Pair<Boolean, List<List<Integer>>> checkSingle(
             Model<S, I, O, T> model,
@@ -71,6 +117,25 @@ public record Entry<T>(
             boolean computePartial,
             AtomicInteger kill
     ) {
+        return checkSingle(model, history, computePartial, kill, new AtomicLong());
+    }
+
+    /// Same as [#checkSingle(Model, List, boolean, AtomicInteger)],
+    /// additionally adding the number of search steps taken to `explored`.
+    /// The counter is updated in batches, so concurrent readers may lag
+    /// behind slightly until the search returns.
+    @SuppressWarnings("unchecked")
+    public static <S, I, O, T> Pair<Boolean, List<List<Integer>>> checkSingle(
+            Model<S, I, O, T> model,
+            List<Entry<T>> history,
+            boolean computePartial,
+            AtomicInteger kill,
+            AtomicLong explored
+    ) {
+        if (history.isEmpty()) {
+            // an empty partition is trivially linearizable
+            return Pair.of(true, new ArrayList<>());
+        }
         var entry = makeLinkedEntries(history);
         int n = entry.length() / 2;
         var linearized = new BitSet(n);
@@ -79,15 +144,21 @@ public record Entry<T>(
         List<List<Integer>> longest = new ArrayList<>(Collections.nCopies(n, null));
 
         S state = model.init();
-        var headEntry = entry.insertBefore(new Node<>(null, null, -1));
+        var headEntry = new Node<T>(null, null, -1).insertBefore(entry);
 
+        long steps = 0;
         while (headEntry.next != null) {
             if (kill.get() != 0) {
+                explored.addAndGet(steps);
                 return Pair.of(false, longest);
             }
+            if (++steps == EXPLORED_FLUSH_INTERVAL) {
+                explored.addAndGet(steps);
+                steps = 0;
+            }
             if (entry.match != null) {
                 var matching = entry.match;
-                Pair<Boolean, S> stepResult = model.step(state, entry.value, matching.value);
+                Pair<Boolean, S> stepResult = model.step(state, (I) entry.value, (O) matching.value);
                 boolean ok = stepResult.first();
                 S newState = stepResult.second();
                 if (ok) {
@@ -110,6 +181,7 @@ public record Entry<T>(
                 }
             } else {
                 if (calls.isEmpty()) {
+                    explored.addAndGet(steps);
                     return Pair.of(false, longest);
                 }
                 if (computePartial) {
@@ -128,14 +200,15 @@ public record Entry<T>(
                     }
                 }
                 var callsTop = calls.get(calls.size() - 1);
-                entry = callsTop.entry;
-                state = callsTop.state;
+                entry = callsTop.entry();
+                state = callsTop.state();
                 linearized.clear(entry.id);
                 calls.remove(calls.size() - 1);
                 entry.unlift();
                 entry = entry.next;
             }
         }
+        explored.addAndGet(steps);
         List<Integer> seq = new ArrayList<>();
         for (var v : calls) {
             seq.add(v.entry().id);
@@ -0,0 +1,32 @@
+package org.behappy.porcupine.check;
+
+import java.util.List;
+
+/// Estimated cost of searching a single partition.
+///
+/// @param index position of the partition in the partitioned history
+/// @param operations number of operations in the partition
+/// @param width concurrency width, i.e. the largest number of operations
+///   whose \[Call, Return] intervals overlap at a single point in time
+/// @param cost relative estimate of the search effort, as a natural
+///   logarithm; the search branches over at most `width` candidates per
+///   linearized operation, so the effort grows linearly with `operations`
+///   and exponentially with `width`. Taking the logarithm keeps wide
+///   partitions comparable instead of overflowing to infinity
+record PartitionCost(int index, int operations, int width, double cost) {
+
+    static <T> PartitionCost estimate(int index, List<Entry<T>> history) {
+        int open = 0;
+        int width = 0;
+        for (var e : history) {
+            if (e.kind() == EntryKind.CALL) {
+                open++;
+                width = Math.max(width, open);
+            } else {
+                open--;
+            }
+        }
+        int operations = history.size() / 2;
+        return new PartitionCost(index, operations, width, Math.log(Math.max(operations, 1)) + width * Math.log(2));
+    }
+}
@@ -0,0 +1,20 @@
+package org.behappy.porcupine.check;
+
+import org.behappy.porcupine.model.CheckResult;
+import org.behappy.porcupine.model.Operation;
+
+import java.util.List;
+
+/// The outcome of checking a single partition.
+///
+/// @param result Ok, Illegal, or Unknown if the check was killed
+/// @param partialLinearizations for each operation, the longest partial
+///   linearization containing it \(see [Entry#checkSingle])
+/// @param violation the operation rejected by the pre-check, or null if the
+///   pre-check found nothing \(or was not run) and the result comes from the
+///   full search
+public record PartitionResult<T>(
+        CheckResult result,
+        List<List<Integer>> partialLinearizations,
+        Operation<T> violation) {
+}
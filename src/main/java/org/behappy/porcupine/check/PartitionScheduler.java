@@ -0,0 +1,208 @@
+package org.behappy.porcupine.check;
+
+import org.behappy.porcupine.model.CheckResult;
+import org.behappy.porcupine.model.Event;
+import org.behappy.porcupine.model.Model;
+import org.behappy.porcupine.model.Operation;
+import org.behappy.porcupine.model.Pair;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/// A PartitionScheduler checks the partitions of a history in parallel.
+///
+/// Partition sizes are often skewed, with a single hot key holding a large
+/// share of the operations. Checking partitions in the order the model returns
+/// them can leave the most expensive one running alone after everything else
+/// has finished, so the scheduler estimates each partition's cost from its
+/// number of operations and its concurrency width \(see [PartitionCost]) and
+/// starts the most expensive partitions first.
+///
+/// As in the reference implementation, an illegal partition stops the
+/// remaining work unless partial linearizations are requested, and a timeout
+/// stops all work and reports Unknown.
+public final class PartitionScheduler {
+    private final int parallelism;
+    private final boolean precheck;
+    private final Duration reportInterval;
+    private final ProgressListener listener;
+
+    public PartitionScheduler() {
+        this(Runtime.getRuntime().availableProcessors(), true, Duration.ofSeconds(1), null);
+    }
+
+    /// @param parallelism number of partitions checked concurrently
+    /// @param precheck whether to run the pre-check pass before each search
+    ///   \(see [Entry#checkPartition])
+    /// @param reportInterval how often to report progress while no partition
+    ///   finishes
+    /// @param listener receives progress updates; may be null
+    public PartitionScheduler(int parallelism, boolean precheck, Duration reportInterval, ProgressListener listener) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+        if (reportInterval.isNegative() || reportInterval.isZero()) {
+            throw new IllegalArgumentException("reportInterval must be positive");
+        }
+        this.parallelism = parallelism;
+        this.precheck = precheck;
+        this.reportInterval = reportInterval;
+        this.listener = listener;
+    }
+
+    /// Partitions the history with [Model#partition] and checks it.
+    public <S, I, O, T> ScheduleResult<T> checkOperations(
+            Model<S, I, O, T> model,
+            List<Operation<T>> history,
+            boolean computePartial,
+            Duration timeout
+    ) {
+        var partitions = new ArrayList<List<Entry<T>>>();
+        for (var subhistory : model.partition(history)) {
+            partitions.add(Entry.makeEntries(subhistory));
+        }
+        return check(model, partitions, computePartial, timeout);
+    }
+
+    /// Partitions the history with [Model#partitionEvent] and checks it.
+    public <S, I, O, T> ScheduleResult<T> checkEvents(
+            Model<S, I, O, T> model,
+            List<Event> history,
+            boolean computePartial,
+            Duration timeout
+    ) {
+        var partitions = new ArrayList<List<Entry<T>>>();
+        for (var subhistory : model.partitionEvent(history)) {
+            partitions.add(Event.<T>convertEntries(Event.renumber(subhistory)));
+        }
+        return check(model, partitions, computePartial, timeout);
+    }
+
+    /// Checks an already partitioned history.
+    ///
+    /// @param timeout null or zero for no timeout
+    public <S, I, O, T> ScheduleResult<T> check(
+            Model<S, I, O, T> model,
+            List<List<Entry<T>>> partitions,
+            boolean computePartial,
+            Duration timeout
+    ) {
+        int total = partitions.size();
+        var costs = new ArrayList<PartitionCost>(total);
+        for (int i = 0; i < total; i++) {
+            costs.add(PartitionCost.estimate(i, partitions.get(i)));
+        }
+        costs.sort(Comparator.comparingDouble(PartitionCost::cost).reversed());
+
+        var kill = new AtomicInteger();
+        var explored = new AtomicLong();
+        var results = new ArrayList<PartitionResult<T>>(Collections.nCopies(total, null));
+        boolean timedOut = false;
+        boolean illegal = false;
+        int done = 0;
+
+        var executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, total)));
+        try {
+            // the pool's queue is FIFO, so partitions start in submission order
+            var completion = new ExecutorCompletionService<Pair<Integer, PartitionResult<T>>>(executor);
+            for (var cost : costs) {
+                int index = cost.index();
+                completion.submit(() -> Pair.of(index,
+                        Entry.checkPartition(model, partitions.get(index), computePartial, kill, precheck, explored)));
+            }
+
+            long deadline = timeout == null || timeout.isZero() ? Long.MAX_VALUE : System.nanoTime() + timeout.toNanos();
+            while (done < total) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    timedOut = true;
+                    break;
+                }
+                var finished = completion.poll(Math.min(remaining, reportInterval.toNanos()), TimeUnit.NANOSECONDS);
+                if (finished != null) {
+                    var result = finished.get();
+                    results.set(result.first(), result.second());
+                    done++;
+                    if (result.second().result() == CheckResult.Illegal) {
+                        illegal = true;
+                        if (!computePartial) {
+                            break;
+                        }
+                    }
+                }
+                // the final update is sent once the loop exits
+                if (done < total && System.nanoTime() < deadline) {
+                    report(done, total, explored);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            timedOut = true;
+        } catch (ExecutionException e) {
+            throw new RuntimeException("partition check failed", e.getCause());
+        } finally {
+            kill.set(1);
+            executor.shutdownNow();
+            awaitWorkers(executor);
+        }
+        report(done, total, explored);
+
+        CheckResult verdict = illegal ? CheckResult.Illegal : timedOut ? CheckResult.Unknown : CheckResult.Ok;
+        for (int i = 0; i < total; i++) {
+            if (results.get(i) == null) {
+                List<List<Integer>> longest = new ArrayList<>(Collections.nCopies(partitions.get(i).size() / 2, null));
+                results.set(i, new PartitionResult<>(CheckResult.Unknown, longest, null));
+            }
+        }
+        return new ScheduleResult<>(verdict, results, linearizationInfo(partitions, results));
+    }
+
+    /// Gives killed searches a chance to publish their step counts before the
+    /// final progress update, without letting a slow model step block the
+    /// caller for longer than one report interval.
+    private void awaitWorkers(ExecutorService executor) {
+        try {
+            executor.awaitTermination(reportInterval.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void report(int done, int total, AtomicLong explored) {
+        if (listener != null) {
+            listener.onProgress(done, total, explored.get());
+        }
+    }
+
+    /// Collects, for each partition, the distinct partial linearizations found
+    /// by the search. Several operations usually share the same longest
+    /// linearization, so these are deduplicated by identity.
+    private static <T> LinearizationInfo<T> linearizationInfo(
+            List<List<Entry<T>>> partitions,
+            List<PartitionResult<T>> results
+    ) {
+        var partialLinearizations = new ArrayList<List<List<Integer>>>(partitions.size());
+        for (var result : results) {
+            var seen = Collections.newSetFromMap(new IdentityHashMap<List<Integer>, Boolean>());
+            var partials = new ArrayList<List<Integer>>();
+            for (var v : result.partialLinearizations()) {
+                if (v != null && seen.add(v)) {
+                    partials.add(v);
+                }
+            }
+            partialLinearizations.add(partials);
+        }
+        return new LinearizationInfo<>(partitions, partialLinearizations, new ArrayList<>());
+    }
+}
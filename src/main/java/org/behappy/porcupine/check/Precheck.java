@@ -0,0 +1,104 @@
+package org.behappy.porcupine.check;
+
+import org.behappy.porcupine.model.Operation;
+import org.behappy.porcupine.model.PrecheckHints;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/// Linear-time pre-analysis of a single partition.
+///
+/// Using the model's [PrecheckHints], this pass flags operations that can
+/// never be linearized, no matter how the rest of the history is ordered:
+///
+/// - an operation requiring a value that neither the initial state nor any
+///   other operation produces, e.g. a read of a value that was never written;
+/// - an operation requiring a value whose producers all start after the
+///   operation has returned, so no point in its real-time window can observe
+///   it.
+///
+/// Finding nothing does not mean the partition is linearizable; the caller
+/// still has to run the full search.
+final class Precheck {
+
+    private Precheck() {
+    }
+
+    /// The two earliest-starting producers of a value. Two are enough to find
+    /// the earliest producer other than the consuming operation itself.
+    private static final class Producers {
+        int firstId = -1;
+        long firstTime;
+        int secondId = -1;
+        long secondTime;
+
+        void add(int id, long callTime) {
+            if (firstId == -1 || callTime < firstTime) {
+                secondId = firstId;
+                secondTime = firstTime;
+                firstId = id;
+                firstTime = callTime;
+            } else if (secondId == -1 || callTime < secondTime) {
+                secondId = id;
+                secondTime = callTime;
+            }
+        }
+
+        /// returns false if no producer other than `self` starts at or before
+        /// `deadline`
+        boolean availableBy(int self, long deadline) {
+            if (firstId != -1 && firstId != self) {
+                return firstTime <= deadline;
+            }
+            return secondId != -1 && secondTime <= deadline;
+        }
+    }
+
+    /// Returns the first operation \(in return order) that cannot be
+    /// linearized according to the hints, or null if none is found.
+    @SuppressWarnings("unchecked")
+    static <I, O, T> Operation<T> findViolation(PrecheckHints<I, O> hints, List<Entry<T>> history) {
+        var calls = new HashMap<Integer, Entry<T>>();
+        var returns = new HashMap<Integer, Entry<T>>();
+        for (var e : history) {
+            if (e.kind() == EntryKind.CALL) {
+                calls.put(e.id(), e);
+            } else {
+                returns.put(e.id(), e);
+            }
+        }
+
+        var initial = new HashSet<Object>(hints.initial());
+        Map<Object, Producers> producers = new HashMap<>();
+        for (var ret : returns.values()) {
+            var call = calls.get(ret.id());
+            if (call == null) {
+                continue;
+            }
+            for (var v : hints.produces((I) call.value(), (O) ret.value())) {
+                producers.computeIfAbsent(v, k -> new Producers()).add(call.id(), call.time());
+            }
+        }
+
+        for (var ret : history) {
+            if (ret.kind() != EntryKind.RETURN) {
+                continue;
+            }
+            var call = calls.get(ret.id());
+            if (call == null) {
+                continue;
+            }
+            var required = hints.requires((I) call.value(), (O) ret.value());
+            if (required == null || initial.contains(required)) {
+                continue;
+            }
+            var p = producers.get(required);
+            if (p == null || !p.availableBy(call.id(), ret.time())) {
+                return new Operation<>(call.clientId(), call.value(), call.time(), ret.value(), ret.time());
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,16 @@
+package org.behappy.porcupine.check;
+
+/// A ProgressListener receives progress updates from a [PartitionScheduler]
+/// while a check is running, e.g. to display an ETA or the search throughput.
+///
+/// Updates are delivered on the thread that called
+/// [PartitionScheduler#check], once per finished partition and once per
+/// report interval, so implementations do not need to be thread-safe.
+@FunctionalInterface
+public interface ProgressListener {
+    /// @param partitionsDone number of partitions whose check has finished
+    /// @param partitionsTotal total number of partitions in the history
+    /// @param nodesExplored search steps taken so far, summed over all
+    ///   partitions
+    void onProgress(int partitionsDone, int partitionsTotal, long nodesExplored);
+}
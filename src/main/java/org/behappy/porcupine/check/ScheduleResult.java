@@ -0,0 +1,19 @@
+package org.behappy.porcupine.check;
+
+import org.behappy.porcupine.model.CheckResult;
+
+import java.util.List;
+
+/// The outcome of checking a partitioned history with a [PartitionScheduler].
+///
+/// @param result Illegal if any partition is illegal, otherwise Unknown if the
+///   check timed out, otherwise Ok
+/// @param partitions per-partition results, in partition order; partitions
+///   that were not checked to completion are reported as Unknown
+/// @param info the partitioned history together with the partial
+///   linearizations found for each partition
+public record ScheduleResult<T>(
+        CheckResult result,
+        List<PartitionResult<T>> partitions,
+        LinearizationInfo<T> info) {
+}
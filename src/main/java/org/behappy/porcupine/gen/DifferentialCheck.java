@@ -0,0 +1,138 @@
+package org.behappy.porcupine.gen;
+
+import org.behappy.porcupine.check.Entry;
+import org.behappy.porcupine.model.CheckResult;
+import org.behappy.porcupine.model.Event;
+import org.behappy.porcupine.model.Model;
+import org.behappy.porcupine.model.Operation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/// Differential testing of optimized checker paths against the baseline
+/// search.
+///
+/// For each generated history, the baseline partitions it with
+/// [Model#partition] and runs [Entry#checkSingle] on every partition in turn.
+/// Its verdict, the candidate's verdict and the verdict the history was
+/// generated with must all agree. For example, to compare the
+/// [org.behappy.porcupine.check.PartitionScheduler] with the baseline:
+///
+/// ```java
+/// var scheduler = new PartitionScheduler();
+/// var mismatches = DifferentialCheck.fuzz(config, 100, false,
+///         (model, history) -> scheduler.checkOperations(model, history, false, null).result());
+/// ```
+///
+/// The `Events` variants run the same comparison on [GeneratedHistory#events],
+/// with a baseline that partitions with [Model#partitionEvent].
+public final class DifferentialCheck {
+
+    private DifferentialCheck() {
+    }
+
+    /// A checker path under test.
+    @FunctionalInterface
+    public interface Candidate {
+        CheckResult check(Model<?, Input, String, Object> model, List<Operation<Object>> history);
+    }
+
+    /// A checker path under test that takes event histories.
+    @FunctionalInterface
+    public interface EventCandidate {
+        CheckResult check(Model<?, Input, String, Object> model, List<Event> history);
+    }
+
+    /// Checks one generated history with the baseline and the candidate.
+    ///
+    /// @param nondeterministic whether to check against the workload's
+    ///   [org.behappy.porcupine.model.NondeterministicModel] instead of its
+    ///   [Model]
+    public static DifferentialResult compare(GeneratedHistory history, boolean nondeterministic, Candidate candidate) {
+        var model = model(history, nondeterministic);
+        var baseline = baseline(model, history.operations());
+        return new DifferentialResult(history.config(), history.expected(), baseline,
+                candidate.check(model, history.operations()));
+    }
+
+    /// Same as [#compare], on the event representation of the history.
+    public static DifferentialResult compareEvents(
+            GeneratedHistory history,
+            boolean nondeterministic,
+            EventCandidate candidate
+    ) {
+        var model = model(history, nondeterministic);
+        var baseline = baselineEvents(model, history.events());
+        return new DifferentialResult(history.config(), history.expected(), baseline,
+                candidate.check(model, history.events()));
+    }
+
+    private static Model<?, Input, String, Object> model(GeneratedHistory history, boolean nondeterministic) {
+        var workload = history.config().workload();
+        return nondeterministic
+                ? ReferenceModels.nondeterministicForWorkload(workload)
+                : ReferenceModels.forWorkload(workload);
+    }
+
+    /// Generates `runs` histories from `config` with consecutive seeds,
+    /// starting at `config.seed()`, and returns the results that disagree.
+    /// Each result carries the configuration that reproduces it.
+    public static List<DifferentialResult> fuzz(
+            GeneratorConfig config,
+            int runs,
+            boolean nondeterministic,
+            Candidate candidate
+    ) {
+        var mismatches = new ArrayList<DifferentialResult>();
+        for (int i = 0; i < runs; i++) {
+            var history = HistoryGenerator.generate(config.withSeed(config.seed() + i));
+            var result = compare(history, nondeterministic, candidate);
+            if (!result.agrees()) {
+                mismatches.add(result);
+            }
+        }
+        return mismatches;
+    }
+
+    /// Same as [#fuzz], on the event representation of each history.
+    public static List<DifferentialResult> fuzzEvents(
+            GeneratorConfig config,
+            int runs,
+            boolean nondeterministic,
+            EventCandidate candidate
+    ) {
+        var mismatches = new ArrayList<DifferentialResult>();
+        for (int i = 0; i < runs; i++) {
+            var history = HistoryGenerator.generate(config.withSeed(config.seed() + i));
+            var result = compareEvents(history, nondeterministic, candidate);
+            if (!result.agrees()) {
+                mismatches.add(result);
+            }
+        }
+        return mismatches;
+    }
+
+    /// The unoptimized reference verdict: every partition is searched in
+    /// order, without pre-check, until one is found to be illegal.
+    public static <S, I, O, T> CheckResult baseline(Model<S, I, O, T> model, List<Operation<T>> history) {
+        var kill = new AtomicInteger();
+        for (var subhistory : model.partition(history)) {
+            if (!Entry.checkSingle(model, Entry.makeEntries(subhistory), false, kill).first()) {
+                return CheckResult.Illegal;
+            }
+        }
+        return CheckResult.Ok;
+    }
+
+    /// Same as [#baseline], on an event history.
+    public static <S, I, O, T> CheckResult baselineEvents(Model<S, I, O, T> model, List<Event> history) {
+        var kill = new AtomicInteger();
+        for (var subhistory : model.partitionEvent(history)) {
+            if (!Entry.checkSingle(model, Event.<T>convertEntries(Event.renumber(subhistory)), false, kill).first()) {
+                return CheckResult.Illegal;
+            }
+        }
+        return CheckResult.Ok;
+    }
+}
@@ -0,0 +1,23 @@
+package org.behappy.porcupine.gen;
+
+import org.behappy.porcupine.model.CheckResult;
+
+/// The verdicts of the baseline search and a candidate checker path on one
+/// generated history.
+///
+/// @param config the configuration that reproduces the history
+/// @param expected the verdict the history was generated with
+/// @param baseline the verdict of [org.behappy.porcupine.check.Entry#checkSingle]
+/// @param candidate the verdict of the checker path under test
+public record DifferentialResult(
+        GeneratorConfig config,
+        CheckResult expected,
+        CheckResult baseline,
+        CheckResult candidate) {
+
+    /// A candidate returning Unknown \(e.g. after a timeout) is not counted as a
+    /// disagreement.
+    public boolean agrees() {
+        return baseline == expected && (candidate == expected || candidate == CheckResult.Unknown);
+    }
+}
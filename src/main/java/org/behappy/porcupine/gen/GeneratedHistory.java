@@ -0,0 +1,24 @@
+package org.behappy.porcupine.gen;
+
+import org.behappy.porcupine.model.CheckResult;
+import org.behappy.porcupine.model.Event;
+import org.behappy.porcupine.model.Operation;
+
+import java.util.List;
+
+/// A history produced by the [HistoryGenerator], together with its known
+/// verdict.
+///
+/// @param config the configuration that produced this history
+/// @param operations the history as operations, in call order
+/// @param events the same history as events, ordered by time; operation
+///   indices are used as event ids
+/// @param expected Ok if no violation was injected, otherwise Illegal
+/// @param violations indices into `operations` of the corrupted operations
+public record GeneratedHistory(
+        GeneratorConfig config,
+        List<Operation<Object>> operations,
+        List<Event> events,
+        CheckResult expected,
+        List<Integer> violations) {
+}
@@ -0,0 +1,33 @@
+package org.behappy.porcupine.gen;
+
+/// Parameters of a synthetic history. The same configuration always produces
+/// the same history.
+///
+/// @param seed seed of the random number generator
+/// @param workload which reference system to simulate
+/// @param operations number of operations in the history
+/// @param clients number of simulated concurrent clients, which bounds the
+///   concurrency width of the history
+/// @param partitions number of distinct keys. If `operations` is at least
+///   `partitions`, every key is used and the history has exactly this many
+///   partitions; otherwise it has at most `operations` partitions
+/// @param violations number of operations whose output is corrupted so that
+///   the history is not linearizable; zero for a linearizable history
+public record GeneratorConfig(
+        long seed,
+        Workload workload,
+        int operations,
+        int clients,
+        int partitions,
+        int violations) {
+
+    public GeneratorConfig {
+        if (operations < 0 || clients <= 0 || partitions <= 0 || violations < 0) {
+            throw new IllegalArgumentException("invalid generator config: " + this);
+        }
+    }
+
+    public GeneratorConfig withSeed(long seed) {
+        return new GeneratorConfig(seed, workload, operations, clients, partitions, violations);
+    }
+}
@@ -0,0 +1,244 @@
+package org.behappy.porcupine.gen;
+
+import org.behappy.porcupine.model.CallEvent;
+import org.behappy.porcupine.model.CheckResult;
+import org.behappy.porcupine.model.Event;
+import org.behappy.porcupine.model.Operation;
+import org.behappy.porcupine.model.ReturnEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/// Generates reproducible synthetic histories for scalability and
+/// differential testing of the checker.
+///
+/// A number of simulated clients run operations against a sequential
+/// reference system \(see [ReferenceModels]). On each tick of a logical clock
+/// one random client advances its current operation by one phase: call,
+/// linearization point \(where the operation is applied to the reference
+/// system and its output is determined), and return. The resulting history is
+/// therefore linearizable, with at most `clients` operations in flight at
+/// once.
+///
+/// Violations are injected afterwards by corrupting the outputs of reads and
+/// dequeues. Every injected violation is illegal regardless of how the rest of
+/// the history is linearized:
+///
+/// - a read returning a value that was never written, or a dequeue returning a
+///   value that was never enqueued \(caught by the pre-check);
+/// - a read returning the value of a write `c` that was overwritten by a write
+///   `m`, where `c` returned before `m` was called and `m` returned before the
+///   read was called. Written values are unique, so no order of the remaining
+///   operations can bring the value back;
+/// - a dequeue returning the value of another, uncorrupted dequeue. Enqueued
+///   values are unique, so the value can only be dequeued once.
+public final class HistoryGenerator {
+    private final GeneratorConfig config;
+    private final Random random;
+
+    private HistoryGenerator(GeneratorConfig config) {
+        this.config = config;
+        this.random = new Random(config.seed());
+    }
+
+    public static GeneratedHistory generate(GeneratorConfig config) {
+        return new HistoryGenerator(config).run();
+    }
+
+    /// A write or append, with the state it left behind in the reference
+    /// system.
+    private record Mutation(int index, String stateAfter) {
+    }
+
+    private static final class Client {
+        int index = -1;
+        Input input;
+        long callTime;
+        String output;
+        boolean linearized;
+    }
+
+    private GeneratedHistory run() {
+        var workload = config.workload();
+        int n = config.operations();
+        var operations = new ArrayList<Operation<Object>>(Collections.nCopies(n, null));
+        // per key, the mutating operations in linearization order
+        var mutations = new HashMap<Integer, List<Mutation>>();
+        var states = new HashMap<Integer, Object>();
+
+        var clients = new ArrayList<Client>();
+        for (int i = 0; i < config.clients(); i++) {
+            clients.add(new Client());
+        }
+        // the first operations visit every key once, in random order, so the
+        // history has exactly `partitions` partitions whenever it can
+        var firstKeys = new ArrayList<Integer>();
+        if (n >= config.partitions()) {
+            for (int key = 0; key < config.partitions(); key++) {
+                firstKeys.add(key);
+            }
+            Collections.shuffle(firstKeys, random);
+        }
+        var candidates = new ArrayList<Integer>();
+        long time = 0;
+        int issued = 0;
+        int completed = 0;
+        int tokens = 0;
+        while (completed < n) {
+            time++;
+            candidates.clear();
+            for (int i = 0; i < clients.size(); i++) {
+                if (clients.get(i).index != -1 || issued < n) {
+                    candidates.add(i);
+                }
+            }
+            int clientId = candidates.get(random.nextInt(candidates.size()));
+            var client = clients.get(clientId);
+            if (client.index == -1) {
+                int key = issued < firstKeys.size() ? firstKeys.get(issued) : random.nextInt(config.partitions());
+                client.index = issued++;
+                client.input = nextInput(workload, key, "v" + tokens++);
+                client.callTime = time;
+                client.linearized = false;
+            } else if (!client.linearized) {
+                var key = client.input.key();
+                var applied = ReferenceModels.apply(workload,
+                        states.getOrDefault(key, ReferenceModels.initialState(workload)), client.input);
+                states.put(key, applied.first());
+                client.output = applied.second();
+                client.linearized = true;
+                if (isMutation(client.input.kind())) {
+                    mutations.computeIfAbsent(key, k -> new ArrayList<>())
+                            .add(new Mutation(client.index, (String) applied.first()));
+                }
+            } else {
+                operations.set(client.index, new Operation<>(clientId, client.input, client.callTime, client.output, time));
+                client.index = -1;
+                completed++;
+            }
+        }
+
+        var violations = inject(workload, operations, mutations);
+        var expected = violations.isEmpty() ? CheckResult.Ok : CheckResult.Illegal;
+        return new GeneratedHistory(config, operations, toEvents(operations), expected, violations);
+    }
+
+    private Input nextInput(Workload workload, int key, String token) {
+        int r = random.nextInt(100);
+        return switch (workload) {
+            case REGISTER -> r < 50 ? new Input(OpKind.READ, key, null) : new Input(OpKind.WRITE, key, token);
+            case KV -> r < 40 ? new Input(OpKind.READ, key, null)
+                    : r < 70 ? new Input(OpKind.WRITE, key, token)
+                    : new Input(OpKind.APPEND, key, token);
+            case QUEUE -> r < 55 ? new Input(OpKind.ENQUEUE, key, token) : new Input(OpKind.DEQUEUE, key, null);
+        };
+    }
+
+    private static boolean isMutation(OpKind kind) {
+        return kind == OpKind.WRITE || kind == OpKind.APPEND;
+    }
+
+    /// Corrupts the outputs of up to `config.violations()` reads or dequeues
+    /// and returns their indices, in ascending order.
+    private List<Integer> inject(
+            Workload workload,
+            List<Operation<Object>> operations,
+            Map<Integer, List<Mutation>> mutations
+    ) {
+        var targets = new ArrayList<Integer>();
+        for (int i = 0; i < operations.size(); i++) {
+            var kind = ((Input) operations.get(i).input()).kind();
+            if (kind == OpKind.READ || kind == OpKind.DEQUEUE) {
+                targets.add(i);
+            }
+        }
+        Collections.shuffle(targets, random);
+        var chosen = new ArrayList<>(targets.subList(0, Math.min(config.violations(), targets.size())));
+        Collections.sort(chosen);
+
+        // values returned by dequeues that are left intact, per key; copying
+        // from a dequeue that is itself corrupted could just swap two values
+        var dequeued = new HashMap<Integer, List<String>>();
+        var corrupted = new HashSet<>(chosen);
+        for (int i = 0; i < operations.size(); i++) {
+            var op = operations.get(i);
+            if (!corrupted.contains(i) && op.output() != null && ((Input) op.input()).kind() == OpKind.DEQUEUE) {
+                dequeued.computeIfAbsent(((Input) op.input()).key(), k -> new ArrayList<>()).add((String) op.output());
+            }
+        }
+
+        for (int i = 0; i < chosen.size(); i++) {
+            int index = chosen.get(i);
+            var op = operations.get(index);
+            var input = (Input) op.input();
+            String output = null;
+            if (random.nextBoolean()) {
+                output = workload == Workload.QUEUE
+                        ? duplicateDequeue(dequeued.getOrDefault(input.key(), List.of()))
+                        : staleRead(operations, mutations.getOrDefault(input.key(), List.of()), op);
+            }
+            if (output == null) {
+                // tokens written by the generator always start with 'v'
+                output = "x" + i;
+            }
+            operations.set(index, new Operation<>(op.clientId(), input, op.callTime(), output, op.returnTime()));
+        }
+        return chosen;
+    }
+
+    /// Returns the state after some write `c` that was overwritten by a write
+    /// `m` strictly between `c` and the read, or null if there is none.
+    private String staleRead(List<Operation<Object>> operations, List<Mutation> mutations, Operation<Object> read) {
+        // the latest-called `m` that returned before the read leaves the most
+        // room for `c`
+        long latestCall = Long.MIN_VALUE;
+        for (var m : mutations) {
+            var op = operations.get(m.index());
+            if (op.returnTime() < read.callTime()) {
+                latestCall = Math.max(latestCall, op.callTime());
+            }
+        }
+        var candidates = new ArrayList<String>();
+        for (var c : mutations) {
+            if (operations.get(c.index()).returnTime() < latestCall) {
+                candidates.add(c.stateAfter());
+            }
+        }
+        return candidates.isEmpty() ? null : candidates.get(random.nextInt(candidates.size()));
+    }
+
+    /// Returns a value returned by an uncorrupted dequeue on the same key, or
+    /// null if there is none.
+    private String duplicateDequeue(List<String> dequeued) {
+        return dequeued.isEmpty() ? null : dequeued.get(random.nextInt(dequeued.size()));
+    }
+
+    /// Converts operations to events ordered by time. Operation indices are
+    /// used as event ids.
+    static List<Event> toEvents(List<Operation<Object>> operations) {
+        var points = new ArrayList<long[]>(operations.size() * 2);
+        for (int i = 0; i < operations.size(); i++) {
+            var op = operations.get(i);
+            points.add(new long[]{op.callTime(), 0, i});
+            points.add(new long[]{op.returnTime(), 1, i});
+        }
+        points.sort(Comparator.<long[]>comparingLong(p -> p[0]).thenComparingLong(p -> p[1]));
+        var events = new ArrayList<Event>(points.size());
+        for (var p : points) {
+            int id = (int) p[2];
+            var op = operations.get(id);
+            if (p[1] == 0) {
+                events.add(new CallEvent<>(op.clientId(), op.input(), id));
+            } else {
+                events.add(new ReturnEvent<>(op.clientId(), op.output(), op.returnTime(), id));
+            }
+        }
+        return events;
+    }
+}
@@ -0,0 +1,11 @@
+package org.behappy.porcupine.gen;
+
+/// Input of an operation on one of the reference models.
+///
+/// @param kind which operation is invoked
+/// @param key the register, key or queue the operation acts on; histories are
+///   partitioned by key
+/// @param value the value written, appended or enqueued; null for reads and
+///   dequeues
+public record Input(OpKind kind, int key, String value) {
+}
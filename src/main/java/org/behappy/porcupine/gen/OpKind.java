@@ -0,0 +1,13 @@
+package org.behappy.porcupine.gen;
+
+/// The operations supported by the reference models in [ReferenceModels].
+public enum OpKind {
+    /// register read or key-value get
+    READ,
+    /// register write or key-value put
+    WRITE,
+    /// key-value append
+    APPEND,
+    ENQUEUE,
+    DEQUEUE,
+}
@@ -0,0 +1,279 @@
+package org.behappy.porcupine.gen;
+
+import org.behappy.porcupine.model.CallEvent;
+import org.behappy.porcupine.model.Event;
+import org.behappy.porcupine.model.Model;
+import org.behappy.porcupine.model.NondeterministicModel;
+import org.behappy.porcupine.model.Operation;
+import org.behappy.porcupine.model.Pair;
+import org.behappy.porcupine.model.PrecheckHints;
+import org.behappy.porcupine.util.Function3;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/// Sequential specifications of the systems simulated by the
+/// [HistoryGenerator], each available as a [Model] and as a
+/// [NondeterministicModel]. All models partition histories by [Input#key], so
+/// the per-partition state is a single register, value or queue.
+///
+/// Operation inputs are [Input] values and outputs are strings; a dequeue from
+/// an empty queue returns null.
+public final class ReferenceModels {
+    /// initial value of every register and key
+    static final String INITIAL = "";
+
+    private ReferenceModels() {
+    }
+
+    public static Model<String, Input, String, Object> register() {
+        return model(() -> INITIAL, ReferenceModels::registerStep, REGISTER_HINTS);
+    }
+
+    public static NondeterministicModel<String, Input, String, Object> nondeterministicRegister() {
+        return nondeterministic(() -> INITIAL, ReferenceModels::registerStep, REGISTER_HINTS);
+    }
+
+    /// Appends make the set of observable values unbounded, so the key-value
+    /// models do not supply pre-check hints.
+    public static Model<String, Input, String, Object> kv() {
+        return model(() -> INITIAL, ReferenceModels::kvStep, null);
+    }
+
+    public static NondeterministicModel<String, Input, String, Object> nondeterministicKv() {
+        return nondeterministic(() -> INITIAL, ReferenceModels::kvStep, null);
+    }
+
+    public static Model<List<String>, Input, String, Object> queue() {
+        return model(List::of, ReferenceModels::queueStep, QUEUE_HINTS);
+    }
+
+    public static NondeterministicModel<List<String>, Input, String, Object> nondeterministicQueue() {
+        return nondeterministic(List::of, ReferenceModels::queueStep, QUEUE_HINTS);
+    }
+
+    /// Returns the deterministic model for the given workload.
+    public static Model<?, Input, String, Object> forWorkload(Workload workload) {
+        return switch (workload) {
+            case REGISTER -> register();
+            case KV -> kv();
+            case QUEUE -> queue();
+        };
+    }
+
+    /// Returns the nondeterministic model for the given workload, converted
+    /// with [NondeterministicModel#toModel].
+    public static Model<?, Input, String, Object> nondeterministicForWorkload(Workload workload) {
+        return switch (workload) {
+            case REGISTER -> nondeterministicRegister().toModel();
+            case KV -> nondeterministicKv().toModel();
+            case QUEUE -> nondeterministicQueue().toModel();
+        };
+    }
+
+    /// Applies a single operation to a sequential system. This is what the
+    /// simulated clients in the [HistoryGenerator] observe at the operation's
+    /// linearization point.
+    ///
+    /// @return the new state and the output of the operation
+    static Pair<Object, String> apply(Workload workload, Object state, Input input) {
+        return switch (workload) {
+            case REGISTER, KV -> switch (input.kind()) {
+                case READ -> Pair.of(state, (String) state);
+                case WRITE -> Pair.of(input.value(), null);
+                case APPEND -> Pair.of(state + input.value(), null);
+                default -> throw new IllegalArgumentException("unsupported operation: " + input);
+            };
+            case QUEUE -> {
+                @SuppressWarnings("unchecked")
+                var queue = (List<String>) state;
+                yield switch (input.kind()) {
+                    case ENQUEUE -> Pair.of(enqueue(queue, input.value()), null);
+                    case DEQUEUE -> queue.isEmpty()
+                            ? Pair.of(queue, null)
+                            : Pair.of(List.copyOf(queue.subList(1, queue.size())), queue.get(0));
+                    default -> throw new IllegalArgumentException("unsupported operation: " + input);
+                };
+            }
+        };
+    }
+
+    static Object initialState(Workload workload) {
+        return workload == Workload.QUEUE ? List.of() : INITIAL;
+    }
+
+    /// Step functions return the next state, or null if the system cannot
+    /// produce the given output.
+    private static String registerStep(String state, Input input, String output) {
+        return switch (input.kind()) {
+            case READ -> Objects.equals(state, output) ? state : null;
+            case WRITE -> input.value();
+            default -> null;
+        };
+    }
+
+    private static String kvStep(String state, Input input, String output) {
+        return switch (input.kind()) {
+            case READ -> Objects.equals(state, output) ? state : null;
+            case WRITE -> input.value();
+            case APPEND -> state + input.value();
+            default -> null;
+        };
+    }
+
+    private static List<String> queueStep(List<String> state, Input input, String output) {
+        return switch (input.kind()) {
+            case ENQUEUE -> enqueue(state, input.value());
+            case DEQUEUE -> {
+                if (state.isEmpty()) {
+                    yield output == null ? state : null;
+                }
+                yield Objects.equals(state.get(0), output) ? List.copyOf(state.subList(1, state.size())) : null;
+            }
+            default -> null;
+        };
+    }
+
+    private static List<String> enqueue(List<String> queue, String value) {
+        var next = new ArrayList<String>(queue.size() + 1);
+        next.addAll(queue);
+        next.add(value);
+        return List.copyOf(next);
+    }
+
+    /// a read returning v requires a write of v
+    private static final PrecheckHints<Input, String> REGISTER_HINTS = new PrecheckHints<>() {
+        @Override
+        public Collection<?> initial() {
+            return List.of(INITIAL);
+        }
+
+        @Override
+        public Collection<?> produces(Input input, String output) {
+            return input.kind() == OpKind.WRITE ? List.of(input.value()) : List.of();
+        }
+
+        @Override
+        public Object requires(Input input, String output) {
+            return input.kind() == OpKind.READ ? output : null;
+        }
+    };
+
+    /// a dequeue returning v requires an enqueue of v
+    private static final PrecheckHints<Input, String> QUEUE_HINTS = new PrecheckHints<>() {
+        @Override
+        public Collection<?> initial() {
+            return List.of();
+        }
+
+        @Override
+        public Collection<?> produces(Input input, String output) {
+            return input.kind() == OpKind.ENQUEUE ? List.of(input.value()) : List.of();
+        }
+
+        @Override
+        public Object requires(Input input, String output) {
+            return input.kind() == OpKind.DEQUEUE ? output : null;
+        }
+    };
+
+    private static <S> Model<S, Input, String, Object> model(
+            Supplier<S> init,
+            Function3<S, Input, String, S> step,
+            PrecheckHints<Input, String> hints
+    ) {
+        return new Model<>() {
+            @Override
+            public List<List<Operation<Object>>> partition(List<Operation<Object>> history) {
+                return ReferenceModels.partition(history);
+            }
+
+            @Override
+            public List<List<Event>> partitionEvent(List<Event> history) {
+                return ReferenceModels.partitionEvent(history);
+            }
+
+            @Override
+            public S init() {
+                return init.get();
+            }
+
+            @Override
+            public Pair<Boolean, S> step(S state, Input input, String output) {
+                var next = step.apply(state, input, output);
+                return Pair.of(next != null, next);
+            }
+
+            @Override
+            public boolean equal(S state1, S state2) {
+                return Objects.equals(state1, state2);
+            }
+
+            @Override
+            public String describeOperation(Input input, String output) {
+                return ReferenceModels.describeOperation(input, output);
+            }
+
+            @Override
+            public String describeState(S state) {
+                return String.valueOf(state);
+            }
+
+            @Override
+            public PrecheckHints<Input, String> precheckHints() {
+                return hints;
+            }
+        };
+    }
+
+    private static <S> NondeterministicModel<S, Input, String, Object> nondeterministic(
+            Supplier<S> init,
+            Function3<S, Input, String, S> step,
+            PrecheckHints<Input, String> hints
+    ) {
+        return new NondeterministicModel<>(
+                ReferenceModels::partition,
+                ReferenceModels::partitionEvent,
+                () -> List.of(init.get()),
+                (state, input, output) -> {
+                    var next = step.apply(state, input, output);
+                    return next == null ? List.of() : List.of(next);
+                },
+                Objects::equals,
+                ReferenceModels::describeOperation,
+                String::valueOf,
+                hints);
+    }
+
+    private static String describeOperation(Input input, String output) {
+        var args = input.value() == null ? String.valueOf(input.key()) : input.key() + ", '" + input.value() + "'";
+        return input.kind().name().toLowerCase() + "(" + args + ") -> '" + output + "'";
+    }
+
+    private static List<List<Operation<Object>>> partition(List<Operation<Object>> history) {
+        var byKey = new TreeMap<Integer, List<Operation<Object>>>();
+        for (var op : history) {
+            var input = (Input) op.input();
+            byKey.computeIfAbsent(input.key(), k -> new ArrayList<>()).add(op);
+        }
+        return new ArrayList<>(byKey.values());
+    }
+
+    private static List<List<Event>> partitionEvent(List<Event> history) {
+        Map<Integer, Integer> keys = new HashMap<>();
+        var byKey = new TreeMap<Integer, List<Event>>();
+        for (var event : history) {
+            if (event instanceof CallEvent<?> call) {
+                keys.put(call.id(), ((Input) call.value()).key());
+            }
+            byKey.computeIfAbsent(keys.get(event.id()), k -> new ArrayList<>()).add(event);
+        }
+        return new ArrayList<>(byKey.values());
+    }
+}
@@ -0,0 +1,13 @@
+package org.behappy.porcupine.gen;
+
+/// The reference systems the [HistoryGenerator] can simulate.
+public enum Workload {
+    /// one register per key, supporting [OpKind#READ] and [OpKind#WRITE]
+    REGISTER,
+    /// a key-value store supporting [OpKind#READ], [OpKind#WRITE] and
+    /// [OpKind#APPEND]
+    KV,
+    /// one FIFO queue per key, supporting [OpKind#ENQUEUE] and
+    /// [OpKind#DEQUEUE]
+    QUEUE,
+}
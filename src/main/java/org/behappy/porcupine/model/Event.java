@@ -48,7 +48,8 @@ public sealed interface Event permits CallEvent, ReturnEvent {
         return switch (old) {
             case CallEvent<?>(int clientId, Object value, _) ->
                     new CallEvent<>(clientId, (T) value, id);
-            case ReturnEvent(int clientId, long ts, _) -> new ReturnEvent(clientId, ts, id);
+            case ReturnEvent<?>(int clientId, Object value, long ts, _) ->
+                    new ReturnEvent<>(clientId, (T) value, ts, id);
         };
     }
 
@@ -58,8 +59,11 @@ public sealed interface Event permits CallEvent, ReturnEvent {
         List<Entry<T>> entries = new ArrayList<>();
         for (int i = 0; i < events.size(); i++) {
             var elem = events.get(i);
-            var kind = elem instanceof ReturnEvent ? EntryKind.RETURN : EntryKind.CALL;
-            var value = elem instanceof CallEvent<?> c ? (T) c.value() : null;
+            var kind = elem instanceof ReturnEvent<?> ? EntryKind.RETURN : EntryKind.CALL;
+            var value = switch (elem) {
+                case CallEvent<?> c -> (T) c.value();
+                case ReturnEvent<?> r -> (T) r.value();
+            };
             // use index as "time"
             entries.add(new Entry<>(kind, value, elem.id(), i, elem.clientId()));
         }
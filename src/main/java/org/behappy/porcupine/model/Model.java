@@ -58,4 +58,10 @@ public interface Model<S, I, O, T> {
     /// producing visualizations.
     String describeState(S state);
 
+    /// Optional hints for the linear-time pre-check pass that runs before the
+    /// full search. Returning null skips the pre-check; see [PrecheckHints].
+    default PrecheckHints<I, O> precheckHints() {
+        return null;
+    }
+
 }
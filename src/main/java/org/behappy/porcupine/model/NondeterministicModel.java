@@ -45,6 +45,9 @@ import java.util.function.Supplier;
 ///   For visualization purposes, describe a state as a string. For
 ///   example, "{'x' -> 'y', 'z' -> 'w'}". Can be omitted if you're not
 ///   producing visualizations.
+/// @param precheckHints
+///   Optional hints for the pre-check pass that runs before the full search.
+///   Can be omitted; see [PrecheckHints].
 public record NondeterministicModel<S, I, O, T>(
         Function<List<Operation<T>>, List<List<Operation<T>>>> partition,
         Function<List<Event>, List<List<Event>>> partitionEvent,
@@ -52,8 +55,20 @@ public record NondeterministicModel<S, I, O, T>(
         Function3<S, I, O, List<S>> step,
         BiPredicate<S, S> equal,
         BiFunction<I, O, String> describeOperation,
-        Function<S, String> describeState
+        Function<S, String> describeState,
+        PrecheckHints<I, O> precheckHints
 ) {
+    public NondeterministicModel(
+            Function<List<Operation<T>>, List<List<Operation<T>>>> partition,
+            Function<List<Event>, List<List<Event>>> partitionEvent,
+            Supplier<List<S>> init,
+            Function3<S, I, O, List<S>> step,
+            BiPredicate<S, S> equal,
+            BiFunction<I, O, String> describeOperation,
+            Function<S, String> describeState) {
+        this(partition, partitionEvent, init, step, equal, describeOperation, describeState, null);
+    }
+
     public Model<List<S>, I, O, T> toModel() {
         var self = this;
         var equal = Objects.requireNonNullElse(this.equal,
@@ -125,6 +140,11 @@ public record NondeterministicModel<S, I, O, T>(
                 return "{" + String.join(", ", descriptions) + "}";
             }
 
+            @Override
+            public PrecheckHints<I, O> precheckHints() {
+                return self.precheckHints;
+            }
+
         };
     }
 
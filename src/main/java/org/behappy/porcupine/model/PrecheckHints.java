@@ -0,0 +1,32 @@
+package org.behappy.porcupine.model;
+
+import java.util.Collection;
+
+/// PrecheckHints lets a model describe, per operation, which values it makes
+/// observable and which value it depends on. The checker uses these hints in a
+/// linear-time pass over each partition to reject histories that fail for
+/// local reasons \(for example, a read returning a value that no write ever
+/// produced) before falling back to the exponential search.
+///
+/// Hints must be sound: an operation may only be reported as requiring a value
+/// if every legal sequential execution needs that value to have been produced
+/// beforehand, either by the initial state or by another operation. If in
+/// doubt, return null from [#requires], which disables the pre-check for that
+/// operation.
+///
+/// Values are compared with [Object#equals] and [Object#hashCode].
+public interface PrecheckHints<I, O> {
+    /// Values that are observable before any operation in the partition takes
+    /// effect, i.e. the values produced by the initial state.
+    Collection<?> initial();
+
+    /// Values that become observable once the given operation takes effect.
+    /// For example, a write of "x" produces "x". Return an empty collection if
+    /// the operation produces nothing.
+    Collection<?> produces(I input, O output);
+
+    /// The value that must have been produced before the given operation can
+    /// take effect, or null if the operation has no such requirement. For
+    /// example, a read returning "x" requires "x".
+    Object requires(I input, O output);
+}
@@ -1,7 +1,8 @@
 package org.behappy.porcupine.model;
 
-public record ReturnEvent(
+public record ReturnEvent<T>(
         int clientId,
+        T value,
         long ts,
         int id) implements Event {
 }
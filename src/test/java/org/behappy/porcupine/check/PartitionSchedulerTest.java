@@ -0,0 +1,297 @@
+package org.behappy.porcupine.check;
+
+import org.behappy.porcupine.gen.DifferentialCheck;
+import org.behappy.porcupine.gen.GeneratorConfig;
+import org.behappy.porcupine.gen.HistoryGenerator;
+import org.behappy.porcupine.gen.Input;
+import org.behappy.porcupine.gen.OpKind;
+import org.behappy.porcupine.gen.ReferenceModels;
+import org.behappy.porcupine.gen.Workload;
+import org.behappy.porcupine.model.CallEvent;
+import org.behappy.porcupine.model.CheckResult;
+import org.behappy.porcupine.model.Event;
+import org.behappy.porcupine.model.Model;
+import org.behappy.porcupine.model.Operation;
+import org.behappy.porcupine.model.Pair;
+import org.behappy.porcupine.model.PrecheckHints;
+import org.behappy.porcupine.model.ReturnEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartitionSchedulerTest {
+
+    /// Delegates to the reference register model, recording the key of every
+    /// step and optionally slowing each step down.
+    private static final class RecordingModel implements Model<String, Input, String, Object> {
+        private final Model<String, Input, String, Object> delegate = ReferenceModels.register();
+        private final long stepMillis;
+        final List<Integer> steppedKeys = Collections.synchronizedList(new ArrayList<>());
+
+        RecordingModel(long stepMillis) {
+            this.stepMillis = stepMillis;
+        }
+
+        @Override
+        public List<List<Operation<Object>>> partition(List<Operation<Object>> history) {
+            return delegate.partition(history);
+        }
+
+        @Override
+        public List<List<Event>> partitionEvent(List<Event> history) {
+            return delegate.partitionEvent(history);
+        }
+
+        @Override
+        public String init() {
+            return delegate.init();
+        }
+
+        @Override
+        public Pair<Boolean, String> step(String state, Input input, String output) {
+            steppedKeys.add(input.key());
+            if (stepMillis > 0) {
+                try {
+                    Thread.sleep(stepMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return delegate.step(state, input, output);
+        }
+
+        @Override
+        public boolean equal(String state1, String state2) {
+            return delegate.equal(state1, state2);
+        }
+
+        @Override
+        public String describeOperation(Input input, String output) {
+            return delegate.describeOperation(input, output);
+        }
+
+        @Override
+        public String describeState(String state) {
+            return delegate.describeState(state);
+        }
+
+        @Override
+        public PrecheckHints<Input, String> precheckHints() {
+            return delegate.precheckHints();
+        }
+    }
+
+    private static Operation<Object> write(int key, String value, long call, long ret) {
+        return new Operation<>(0, new Input(OpKind.WRITE, key, value), call, null, ret);
+    }
+
+    private static Operation<Object> read(int key, String value, long call, long ret) {
+        return new Operation<>(1, new Input(OpKind.READ, key, null), call, value, ret);
+    }
+
+    /// `count` writes on `key` with `width` of them in flight at once
+    private static List<Operation<Object>> writes(int key, int count, int width) {
+        var ops = new ArrayList<Operation<Object>>();
+        for (int i = 0; i < count; i++) {
+            long start = (long) (i / width) * 10;
+            ops.add(write(key, "v" + key + "-" + i, start, start + 5));
+        }
+        return ops;
+    }
+
+    @Test
+    void partitionsStartInDescendingCostOrder() {
+        var history = new ArrayList<Operation<Object>>();
+        history.addAll(writes(0, 4, 1));
+        history.addAll(writes(1, 8, 4));
+        history.addAll(writes(2, 8, 1));
+        history.addAll(writes(3, 6, 3));
+        var model = new RecordingModel(0);
+        var scheduler = new PartitionScheduler(1, false, Duration.ofSeconds(1), null);
+
+        var result = scheduler.checkOperations(model, history, false, null);
+
+        assertEquals(CheckResult.Ok, result.result());
+        var started = new ArrayList<Integer>();
+        for (int key : model.steppedKeys) {
+            if (!started.contains(key)) {
+                started.add(key);
+            }
+        }
+        assertEquals(List.of(1, 3, 2, 0), started);
+    }
+
+    @Test
+    void costOfWidePartitionsStaysFinite() {
+        var narrow = PartitionCost.estimate(0, Entry.makeEntries(writes(0, 1100, 1100)));
+        var wide = PartitionCost.estimate(1, Entry.makeEntries(writes(0, 1200, 1200)));
+        assertEquals(1200, wide.width());
+        assertTrue(Double.isFinite(wide.cost()));
+        assertTrue(wide.cost() > narrow.cost());
+    }
+
+    @Test
+    void illegalPartitionStopsRemainingWork() {
+        var history = new ArrayList<Operation<Object>>();
+        // the most expensive partition is illegal, so it is checked first
+        history.addAll(writes(0, 6, 3));
+        history.add(read(0, "never-written", 100, 105));
+        history.addAll(writes(1, 2, 1));
+        history.addAll(writes(2, 2, 1));
+        var scheduler = new PartitionScheduler(1, false, Duration.ofSeconds(1), null);
+
+        var result = scheduler.checkOperations(ReferenceModels.register(), history, false, null);
+
+        assertEquals(CheckResult.Illegal, result.result());
+        assertEquals(CheckResult.Illegal, result.partitions().get(0).result());
+        assertEquals(CheckResult.Unknown, result.partitions().get(1).result());
+        assertEquals(CheckResult.Unknown, result.partitions().get(2).result());
+    }
+
+    @Test
+    void illegalPartitionDoesNotStopWorkWhenComputingPartials() {
+        var history = new ArrayList<Operation<Object>>();
+        history.addAll(writes(0, 6, 3));
+        history.add(read(0, "never-written", 100, 105));
+        history.addAll(writes(1, 2, 1));
+        var scheduler = new PartitionScheduler(1, false, Duration.ofSeconds(1), null);
+
+        var result = scheduler.checkOperations(ReferenceModels.register(), history, true, null);
+
+        assertEquals(CheckResult.Illegal, result.result());
+        assertEquals(CheckResult.Ok, result.partitions().get(1).result());
+    }
+
+    @Test
+    void timeoutIsUnknown() {
+        var history = new ArrayList<Operation<Object>>();
+        history.addAll(writes(0, 20, 2));
+        history.addAll(writes(1, 20, 2));
+        var model = new RecordingModel(20);
+        var done = new ArrayList<Integer>();
+        var nodes = new ArrayList<Long>();
+        var scheduler = new PartitionScheduler(1, false, Duration.ofMillis(10), (partitionsDone, partitionsTotal, nodesExplored) -> {
+            done.add(partitionsDone);
+            nodes.add(nodesExplored);
+        });
+
+        var result = scheduler.checkOperations(model, history, false, Duration.ofMillis(100));
+
+        assertEquals(CheckResult.Unknown, result.result());
+        for (var partition : result.partitions()) {
+            assertEquals(CheckResult.Unknown, partition.result());
+        }
+        // the last update comes after the killed search has published its
+        // step count
+        assertEquals(0, done.get(done.size() - 1));
+        long finalNodes = nodes.get(nodes.size() - 1);
+        assertTrue(finalNodes > 0);
+        assertTrue(finalNodes >= model.steppedKeys.size());
+    }
+
+    @Test
+    void progressIsMonotonicAndReportedOnCallingThread() {
+        var history = HistoryGenerator.generate(new GeneratorConfig(5, Workload.KV, 2000, 6, 8, 0));
+        var caller = Thread.currentThread();
+        var threads = new ArrayList<Thread>();
+        var done = new ArrayList<Integer>();
+        var nodes = new ArrayList<Long>();
+        var scheduler = new PartitionScheduler(4, true, Duration.ofMillis(1), (partitionsDone, partitionsTotal, nodesExplored) -> {
+            threads.add(Thread.currentThread());
+            done.add(partitionsDone);
+            nodes.add(nodesExplored);
+            assertEquals(8, partitionsTotal);
+        });
+
+        var result = scheduler.checkOperations(ReferenceModels.kv(), history.operations(), false, null);
+
+        assertEquals(CheckResult.Ok, result.result());
+        assertTrue(!done.isEmpty());
+        for (var thread : threads) {
+            assertSame(caller, thread);
+        }
+        for (int i = 1; i < done.size(); i++) {
+            assertTrue(done.get(i) >= done.get(i - 1));
+            assertTrue(nodes.get(i) >= nodes.get(i - 1));
+        }
+        assertEquals(8, done.get(done.size() - 1));
+        assertTrue(nodes.get(nodes.size() - 1) > 0);
+    }
+
+    @Test
+    void emptyPartitionIsOk() {
+        var scheduler = new PartitionScheduler(2, true, Duration.ofSeconds(1), null);
+
+        var empty = scheduler.check(ReferenceModels.register(), List.of(List.of()), false, null);
+        assertEquals(CheckResult.Ok, empty.result());
+        assertEquals(CheckResult.Ok, empty.partitions().get(0).result());
+        assertEquals(List.of(), empty.info().partialLinearizations().get(0));
+
+        var mixed = scheduler.check(ReferenceModels.register(),
+                List.of(List.of(), Entry.makeEntries(writes(0, 3, 2))), false, null);
+        assertEquals(CheckResult.Ok, mixed.result());
+    }
+
+    @Test
+    void eventHistoriesCarryReturnValues() {
+        var write = new Input(OpKind.WRITE, 0, "v1");
+        var read = new Input(OpKind.READ, 0, null);
+        var otherKey = new Input(OpKind.READ, 1, null);
+        List<Event> legal = List.of(
+                new CallEvent<>(0, write, 7),
+                new CallEvent<>(1, read, 3),
+                new CallEvent<>(2, otherKey, 5),
+                new ReturnEvent<>(0, null, 0, 7),
+                new ReturnEvent<>(2, "", 0, 5),
+                new ReturnEvent<>(1, "v1", 0, 3));
+        List<Event> illegal = List.of(
+                new CallEvent<>(0, write, 7),
+                new ReturnEvent<>(0, null, 0, 7),
+                new CallEvent<>(1, read, 3),
+                new ReturnEvent<>(1, "", 0, 3));
+        var scheduler = new PartitionScheduler(2, false, Duration.ofSeconds(1), null);
+
+        var ok = scheduler.checkEvents(ReferenceModels.register(), legal, false, null);
+        assertEquals(CheckResult.Ok, ok.result());
+        assertEquals(2, ok.partitions().size());
+        assertEquals(CheckResult.Illegal, scheduler.checkEvents(ReferenceModels.register(), illegal, false, null).result());
+    }
+
+    @Test
+    void schedulerAgreesWithBaseline() {
+        var withPrecheck = new PartitionScheduler(4, true, Duration.ofSeconds(1), null);
+        var withoutPrecheck = new PartitionScheduler(4, false, Duration.ofSeconds(1), null);
+        for (var workload : Workload.values()) {
+            for (int violations = 0; violations <= 2; violations++) {
+                var config = new GeneratorConfig(0, workload, 40, 4, 3, violations);
+                for (var scheduler : List.of(withPrecheck, withoutPrecheck)) {
+                    for (boolean nondeterministic : new boolean[]{false, true}) {
+                        var mismatches = DifferentialCheck.fuzz(config, 30, nondeterministic,
+                                (model, history) -> scheduler.checkOperations(model, history, false, null).result());
+                        assertTrue(mismatches.isEmpty(), () -> mismatches.get(0).toString());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void schedulerAgreesWithBaselineOnEvents() {
+        var scheduler = new PartitionScheduler(4, true, Duration.ofSeconds(1), null);
+        for (var workload : Workload.values()) {
+            for (int violations = 0; violations <= 2; violations++) {
+                var config = new GeneratorConfig(0, workload, 40, 4, 3, violations);
+                var mismatches = DifferentialCheck.fuzzEvents(config, 30, false,
+                        (model, history) -> scheduler.checkEvents(model, history, false, null).result());
+                assertTrue(mismatches.isEmpty(), () -> mismatches.get(0).toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package org.behappy.porcupine.check;
+
+import org.behappy.porcupine.model.CheckResult;
+import org.behappy.porcupine.model.Event;
+import org.behappy.porcupine.model.Model;
+import org.behappy.porcupine.model.Operation;
+import org.behappy.porcupine.model.Pair;
+import org.behappy.porcupine.model.PrecheckHints;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PrecheckTest {
+
+    /// A single register with initial value "". Inputs are "w:<value>" for a
+    /// write and "r" for a read, whose output is the value read.
+    private static final Model<String, String, String, String> REGISTER = new Model<>() {
+        @Override
+        public List<List<Operation<String>>> partition(List<Operation<String>> history) {
+            return List.of(history);
+        }
+
+        @Override
+        public List<List<Event>> partitionEvent(List<Event> history) {
+            return List.of(history);
+        }
+
+        @Override
+        public String init() {
+            return "";
+        }
+
+        @Override
+        public Pair<Boolean, String> step(String state, String input, String output) {
+            if (input.startsWith("w:")) {
+                return Pair.of(true, input.substring(2));
+            }
+            return Pair.of(Objects.equals(state, output), state);
+        }
+
+        @Override
+        public boolean equal(String state1, String state2) {
+            return Objects.equals(state1, state2);
+        }
+
+        @Override
+        public String describeOperation(String input, String output) {
+            return input + " -> " + output;
+        }
+
+        @Override
+        public String describeState(String state) {
+            return state;
+        }
+
+        @Override
+        public PrecheckHints<String, String> precheckHints() {
+            return new PrecheckHints<>() {
+                @Override
+                public Collection<?> initial() {
+                    return List.of("");
+                }
+
+                @Override
+                public Collection<?> produces(String input, String output) {
+                    return input.startsWith("w:") ? List.of(input.substring(2)) : List.of();
+                }
+
+                @Override
+                public Object requires(String input, String output) {
+                    return input.equals("r") ? output : null;
+                }
+            };
+        }
+    };
+
+    private static Operation<String> write(int clientId, String value, long call, long ret) {
+        return new Operation<>(clientId, "w:" + value, call, null, ret);
+    }
+
+    private static Operation<String> read(int clientId, String value, long call, long ret) {
+        return new Operation<>(clientId, "r", call, value, ret);
+    }
+
+    private static PartitionResult<String> check(List<Operation<String>> history, AtomicInteger kill) {
+        return Entry.checkPartition(REGISTER, Entry.makeEntries(history), false, kill, true);
+    }
+
+    @Test
+    void readOfUnwrittenValueIsIllegal() {
+        var bad = read(1, "v9", 1, 5);
+        var result = check(List.of(write(0, "v1", 0, 10), bad), new AtomicInteger());
+        assertEquals(CheckResult.Illegal, result.result());
+        assertEquals(bad, result.violation());
+    }
+
+    @Test
+    void readBeforeOnlyWriterStartsIsIllegal() {
+        var bad = read(1, "v1", 0, 5);
+        var result = check(List.of(write(0, "v1", 10, 20), bad), new AtomicInteger());
+        assertEquals(CheckResult.Illegal, result.result());
+        assertEquals(bad, result.violation());
+    }
+
+    @Test
+    void readConcurrentWithWriterIsNotFlagged() {
+        // closed intervals: the write may take effect at time 5
+        var result = check(List.of(write(0, "v1", 5, 20), read(1, "v1", 0, 5)), new AtomicInteger());
+        assertEquals(CheckResult.Ok, result.result());
+        assertNull(result.violation());
+    }
+
+    /// "s:a" requires and produces "a", "w:a" only produces "a"
+    private static final PrecheckHints<String, String> SELF_HINTS = new PrecheckHints<>() {
+        @Override
+        public Collection<?> initial() {
+            return List.of();
+        }
+
+        @Override
+        public Collection<?> produces(String input, String output) {
+            return List.of(input.substring(2));
+        }
+
+        @Override
+        public Object requires(String input, String output) {
+            return input.startsWith("s:") ? input.substring(2) : null;
+        }
+    };
+
+    @Test
+    void operationIsNotItsOwnProducer() {
+        var self = new Operation<>(0, "s:a", 0, "", 10);
+        assertEquals(self, Precheck.findViolation(SELF_HINTS, Entry.makeEntries(List.of(self))));
+    }
+
+    @Test
+    void otherProducerSatisfiesRequirement() {
+        var self = new Operation<>(0, "s:a", 0, "", 10);
+        var other = new Operation<>(1, "w:a", 10, "", 20);
+        assertNull(Precheck.findViolation(SELF_HINTS, Entry.makeEntries(List.of(self, other))));
+    }
+
+    @Test
+    void legalHistoryFallsThroughToSearch() {
+        var history = List.of(
+                read(0, "", 0, 3),
+                write(1, "v1", 1, 5),
+                read(0, "v1", 6, 10));
+        var result = check(history, new AtomicInteger());
+        assertEquals(CheckResult.Ok, result.result());
+        assertNull(result.violation());
+        assertNotNull(result.partialLinearizations().get(0));
+    }
+
+    @Test
+    void illegalHistoryPassingPrecheckIsFoundBySearch() {
+        // every value was written before it is read, but v1 is read after
+        // being overwritten by v2
+        var history = List.of(
+                write(0, "v1", 0, 1),
+                write(0, "v2", 2, 3),
+                read(1, "v1", 4, 5));
+        var result = check(history, new AtomicInteger());
+        assertEquals(CheckResult.Illegal, result.result());
+        assertNull(result.violation());
+    }
+
+    @Test
+    void killedSearchIsUnknown() {
+        var history = List.of(write(0, "v1", 0, 5), read(1, "v1", 6, 10));
+        var result = check(history, new AtomicInteger(1));
+        assertEquals(CheckResult.Unknown, result.result());
+        assertNull(result.violation());
+    }
+
+    @Test
+    void precheckCanBeDisabled() {
+        var history = List.of(write(0, "v1", 0, 10), read(1, "v9", 1, 5));
+        var result = Entry.checkPartition(REGISTER, Entry.makeEntries(history), false, new AtomicInteger(), false);
+        assertEquals(CheckResult.Illegal, result.result());
+        assertNull(result.violation());
+    }
+}
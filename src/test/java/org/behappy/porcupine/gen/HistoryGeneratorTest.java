@@ -0,0 +1,82 @@
+package org.behappy.porcupine.gen;
+
+import org.behappy.porcupine.model.CheckResult;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HistoryGeneratorTest {
+
+    @Test
+    void sameSeedGivesSameHistory() {
+        var config = new GeneratorConfig(42, Workload.KV, 50, 4, 3, 2);
+        var first = HistoryGenerator.generate(config);
+        var second = HistoryGenerator.generate(config);
+        assertEquals(first.operations(), second.operations());
+        assertEquals(first.violations(), second.violations());
+    }
+
+    @Test
+    void expectedVerdictMatchesBaseline() {
+        for (var workload : Workload.values()) {
+            for (int operations = 4; operations <= 8; operations++) {
+                for (int clients = 2; clients <= 4; clients++) {
+                    for (int violations : new int[]{0, 1, operations}) {
+                        var config = new GeneratorConfig(0, workload, operations, clients, 1, violations);
+                        var mismatches = DifferentialCheck.fuzz(config, 200, false, DifferentialCheck::baseline);
+                        assertTrue(mismatches.isEmpty(), () -> mismatches.get(0).toString());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void swappedDequeuesAreNotLabeledIllegal() {
+        // used to corrupt two dequeues by swapping their values, which is legal
+        var history = HistoryGenerator.generate(new GeneratorConfig(3, Workload.QUEUE, 4, 2, 1, 4));
+        var baseline = DifferentialCheck.baseline(ReferenceModels.queue(), history.operations());
+        assertEquals(history.expected(), baseline);
+    }
+
+    @Test
+    void nondeterministicModelsAgreeWithBaseline() {
+        for (var workload : Workload.values()) {
+            var config = new GeneratorConfig(0, workload, 30, 4, 2, 1);
+            var mismatches = DifferentialCheck.fuzz(config, 50, true, DifferentialCheck::baseline);
+            assertTrue(mismatches.isEmpty(), () -> mismatches.get(0).toString());
+        }
+    }
+
+    @Test
+    void eventVerdictMatchesOperationVerdict() {
+        for (var workload : Workload.values()) {
+            for (int violations = 0; violations <= 2; violations++) {
+                var config = new GeneratorConfig(0, workload, 30, 4, 2, violations);
+                for (boolean nondeterministic : new boolean[]{false, true}) {
+                    var mismatches = DifferentialCheck.fuzzEvents(config, 50, nondeterministic,
+                            DifferentialCheck::baselineEvents);
+                    assertTrue(mismatches.isEmpty(), () -> mismatches.get(0).toString());
+                }
+            }
+        }
+    }
+
+    @Test
+    void everyKeyIsUsedWhenThereAreEnoughOperations() {
+        for (int seed = 0; seed < 50; seed++) {
+            var exact = HistoryGenerator.generate(new GeneratorConfig(seed, Workload.REGISTER, 8, 3, 8, 0));
+            assertEquals(8, ReferenceModels.register().partition(exact.operations()).size());
+            var bounded = HistoryGenerator.generate(new GeneratorConfig(seed, Workload.REGISTER, 3, 3, 8, 0));
+            assertTrue(ReferenceModels.register().partition(bounded.operations()).size() <= 3);
+        }
+    }
+
+    @Test
+    void historyWithoutViolationsIsOk() {
+        var history = HistoryGenerator.generate(new GeneratorConfig(1, Workload.REGISTER, 100, 5, 4, 0));
+        assertEquals(CheckResult.Ok, history.expected());
+        assertEquals(CheckResult.Ok, DifferentialCheck.baseline(ReferenceModels.register(), history.operations()));
+    }
+}